@@ -1,6 +1,7 @@
 plugins {
     java
     id("org.springframework.boot") version "3.5.5"
+    id("org.springframework.boot.aot") version "3.5.5"
     id("io.spring.dependency-management") version "1.1.7"
 }
 
@@ -17,6 +18,9 @@ repositories {
     mavenCentral()
 }
 
+// End-to-end HTTP load harness; kept out of main and test so it never ships or runs in CI.
+val loadTest by sourceSets.creating
+
 dependencies {
     // Spring Boot Starters
     implementation("org.springframework.boot:spring-boot-starter-web")
@@ -29,6 +33,9 @@ dependencies {
     testImplementation("org.springframework.boot:spring-boot-starter-test")
     testImplementation("org.assertj:assertj-core:3.26.3")
     testRuntimeOnly("org.junit.platform:junit-platform-launcher")
+
+    // Load-test harness (src/loadTest)
+    "loadTestImplementation"("org.hdrhistogram:HdrHistogram:2.2.2")
 }
 
 tasks.withType<Test> {
@@ -56,4 +63,140 @@ tasks.register("testReport") {
         println("Tests run: ${testResults.testLogging}")
         println("Test report: file://${layout.buildDirectory.get()}/reports/tests/test/index.html")
     }
-}
\ No newline at end of file
+}
+
+// ---------- Fast startup: Spring AOT + AppCDS ----------
+// The aot plugin adds processAot and bakes the generated bean definitions into bootJar;
+// they are only used when the JVM runs with -Dspring.aot.enabled=true.
+//
+//   ./gradlew trainCds        extract bootJar and record a CDS archive from a training run
+//                             that serves real requests, so the first-request path is archived
+//   ./gradlew bootRunFast     run the extracted app with AOT + the CDS archive
+//   ./gradlew startupReport   compare time-to-first-request: plain bootJar, extracted jar,
+//                             and extracted jar with AOT, CDS, or both
+//
+// All inputs below are providers resolved at configuration time, so these tasks work with
+// the configuration cache; the launching and timing logic lives in src/loadTest.
+
+val cdsDir = layout.buildDirectory.dir("cds")
+// Kept outside cdsDir: extractCds owns that directory.
+val cdsArchive = layout.buildDirectory.file("cds-archive/application.jsa")
+val cdsArchiveNoAot = layout.buildDirectory.file("cds-archive/application-noaot.jsa")
+val runtimeLauncher = javaToolchains.launcherFor {
+    languageVersion.set(JavaLanguageVersion.of(21))
+}
+val runtimeJava = runtimeLauncher.map { it.executablePath.asFile.absolutePath }
+val fatJar = tasks.bootJar.flatMap { it.archiveFile }
+// `java -Djarmode=tools -jar app.jar extract` writes <dest>/<jar name> plus lib/, the layout CDS needs.
+val extractedJar = cdsDir.zip(tasks.bootJar.flatMap { it.archiveFileName }) { dir, name -> dir.file(name) }
+
+val extractCds by tasks.registering(Exec::class) {
+    group = "fast startup"
+    description = "Extracts bootJar into a layout suitable for class-data sharing."
+    val jar = fatJar
+    val dest = cdsDir
+    inputs.file(jar)
+    outputs.dir(dest)
+    executable = runtimeJava.get()
+    argumentProviders.add(CommandLineArgumentProvider {
+        listOf("-Djarmode=tools", "-jar", jar.get().asFile.absolutePath,
+            "extract", "--force", "--destination", dest.get().asFile.absolutePath)
+    })
+}
+
+fun registerCdsTraining(name: String, archive: Provider<RegularFile>, aot: Boolean, what: String) =
+    tasks.register<JavaExec>(name) {
+        group = "fast startup"
+        description = "Training run$what: boots the app, serves one request per endpoint, and dumps loaded classes into a CDS archive."
+        dependsOn(extractCds)
+        classpath = loadTest.runtimeClasspath
+        mainClass.set("edu.trincoll.tracker.CdsTrainer")
+        javaLauncher.set(runtimeLauncher)
+        val javaExe = runtimeJava
+        val jar = extractedJar
+        inputs.file(jar)
+        outputs.file(archive)
+        jvmArgumentProviders.add(CommandLineArgumentProvider {
+            listOf("-Dcds.java=${javaExe.get()}",
+                "-Dcds.jar=${jar.get().asFile.absolutePath}",
+                "-Dcds.archive=${archive.get().asFile.absolutePath}",
+                "-Dcds.aot=$aot")
+        })
+    }
+
+val trainCds = registerCdsTraining("trainCds", cdsArchive, true, "")
+// Only used by startupReport, to separate what CDS buys from what AOT buys.
+val trainCdsNoAot = registerCdsTraining("trainCdsNoAot", cdsArchiveNoAot, false, " without Spring AOT")
+
+tasks.register<Exec>("bootRunFast") {
+    group = "fast startup"
+    description = "Runs the application with Spring AOT and the trained CDS archive."
+    dependsOn(trainCds)
+    val jar = extractedJar
+    val archive = cdsArchive
+    executable = runtimeJava.get()
+    argumentProviders.add(CommandLineArgumentProvider {
+        listOf("-XX:SharedArchiveFile=${archive.get().asFile.absolutePath}",
+            "-Dspring.aot.enabled=true",
+            "-jar", jar.get().asFile.absolutePath)
+    })
+}
+
+tasks.register<JavaExec>("startupReport") {
+    group = "fast startup"
+    description = "Measures time-to-first-request for bootJar and each AOT/CDS combination (-PstartupRuns=N, default 5)."
+    dependsOn(tasks.bootJar, trainCds, trainCdsNoAot)
+    classpath = loadTest.runtimeClasspath
+    mainClass.set("edu.trincoll.tracker.StartupReport")
+    javaLauncher.set(runtimeLauncher)
+    val javaExe = runtimeJava
+    val plain = fatJar
+    val extracted = extractedJar
+    val archive = cdsArchive
+    val archiveNoAot = cdsArchiveNoAot
+    val runs = providers.gradleProperty("startupRuns").orElse("5")
+    jvmArgumentProviders.add(CommandLineArgumentProvider {
+        listOf("-Dstartup.java=${javaExe.get()}",
+            "-Dstartup.fatJar=${plain.get().asFile.absolutePath}",
+            "-Dstartup.extractedJar=${extracted.get().asFile.absolutePath}",
+            "-Dstartup.cdsArchive=${archive.get().asFile.absolutePath}",
+            "-Dstartup.cdsArchiveNoAot=${archiveNoAot.get().asFile.absolutePath}",
+            "-Dstartup.runs=${runs.get()}")
+    })
+}
+
+// ---------- Load test ----------
+//   ./gradlew loadTest -Pload.rate=2000 -Pload.duration=60 -Pload.habits=5000 \
+//       -Pload.mix=getById=40,getAll=5,search=15,create=10,update=15,delete=5,complete=10
+// Add -Pload.fast=true to boot with AOT + the CDS archive from trainCds.
+
+val loadFast = providers.gradleProperty("load.fast").map { it.toBoolean() }.getOrElse(false)
+
+tasks.register<JavaExec>("loadTest") {
+    group = "verification"
+    description = "Boots the app from bootJar and drives a fixed-rate mixed HTTP workload (HdrHistogram report)."
+    dependsOn(tasks.bootJar)
+    if (loadFast) {
+        dependsOn(trainCds)
+    }
+    classpath = loadTest.runtimeClasspath
+    mainClass.set("edu.trincoll.tracker.LoadHarness")
+    javaLauncher.set(runtimeLauncher)
+    val fast = loadFast
+    val javaExe = runtimeJava
+    val jar = if (fast) extractedJar else fatJar
+    val archive = cdsArchive
+    val appLog = layout.buildDirectory.file("load/app.log")
+    val forwarded = providers.gradlePropertiesPrefixedBy("load.").map { it - "load.fast" }
+    jvmArgumentProviders.add(CommandLineArgumentProvider {
+        val props = mutableMapOf(
+            "load.java" to javaExe.get(),
+            "load.jar" to jar.get().asFile.absolutePath,
+            "load.appLog" to appLog.get().asFile.absolutePath)
+        if (fast) {
+            props["load.cdsArchive"] = archive.get().asFile.absolutePath
+        }
+        props.putAll(forwarded.get())
+        props.map { (k, v) -> "-D$k=$v" }
+    })
+}
@@ -0,0 +1,118 @@
+package edu.trincoll.tracker;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * TrackerApplication running in its own JVM on a free local port.
+ *
+ * Shared by {@link LoadHarness}, {@link StartupReport} and {@link CdsTrainer} so there is
+ * one definition of "launch the jar" and "ready" (first 200 from GET /api/Habits).
+ */
+final class AppProcess implements AutoCloseable {
+
+    private static final Duration PROBE_TIMEOUT = Duration.ofSeconds(2);
+    private static final Duration READY_DEADLINE = Duration.ofSeconds(120);
+
+    private final Process process;
+    private final URI base;
+    private final long launchedAt;
+
+    private AppProcess(Process process, URI base, long launchedAt) {
+        this.process = process;
+        this.base = base;
+        this.launchedAt = launchedAt;
+    }
+
+    /**
+     * Launch {@code java [jvmArgs] -jar jar} on a free port. Output goes to {@code log},
+     * or is discarded when it is null.
+     */
+    static AppProcess start(String java, List<String> jvmArgs, String jar, File log) throws IOException {
+        int port;
+        try (ServerSocket socket = new ServerSocket(0)) {
+            port = socket.getLocalPort();
+        }
+        List<String> command = new ArrayList<>();
+        command.add(java);
+        command.addAll(jvmArgs);
+        command.addAll(List.of("-jar", jar,
+                "--server.port=" + port,
+                "--logging.level.root=WARN",
+                "--logging.level.edu.trincoll=WARN"));
+
+        ProcessBuilder pb = new ProcessBuilder(command).redirectErrorStream(true);
+        if (log == null) {
+            pb.redirectOutput(ProcessBuilder.Redirect.DISCARD);
+        } else {
+            log.getAbsoluteFile().getParentFile().mkdirs();
+            pb.redirectOutput(ProcessBuilder.Redirect.to(log));
+        }
+        long launchedAt = System.nanoTime();
+        return new AppProcess(pb.start(), URI.create("http://localhost:" + port), launchedAt);
+    }
+
+    URI base() {
+        return base;
+    }
+
+    /** Wait until the app serves its first request; returns nanoseconds since launch. */
+    long awaitFirstRequest(HttpClient client) throws InterruptedException {
+        awaitReady(client, base, process);
+        return System.nanoTime() - launchedAt;
+    }
+
+    /**
+     * Poll GET /api/Habits until it answers 200. Each probe has its own timeout, so a server
+     * that accepts connections but never answers still hits the overall deadline.
+     * {@code process} may be null when the server is not ours to watch.
+     */
+    static void awaitReady(HttpClient client, URI base, Process process) throws InterruptedException {
+        HttpRequest probe = HttpRequest.newBuilder(base.resolve("/api/Habits")).timeout(PROBE_TIMEOUT).build();
+        long deadline = System.nanoTime() + READY_DEADLINE.toNanos();
+        while (System.nanoTime() < deadline) {
+            if (process != null && !process.isAlive()) {
+                throw new IllegalStateException("Application exited with " + process.exitValue() + " during startup");
+            }
+            try {
+                if (client.send(probe, HttpResponse.BodyHandlers.discarding()).statusCode() == 200) {
+                    return;
+                }
+            } catch (IOException e) {
+                // not listening yet, or accepted but did not answer within the probe timeout
+            }
+            Thread.sleep(5);
+        }
+        throw new IllegalStateException("Application at " + base + " did not become ready within "
+                + READY_DEADLINE.toSeconds() + "s");
+    }
+
+    /**
+     * Ask the JVM to exit (SIGTERM, so shutdown hooks and exit-time dumps such as
+     * -XX:ArchiveClassesAtExit run), forcing it after {@code grace}. Returns the exit code.
+     */
+    int stop(Duration grace) throws InterruptedException {
+        process.destroy();
+        if (!process.waitFor(grace.toMillis(), TimeUnit.MILLISECONDS)) {
+            process.destroyForcibly();
+            process.waitFor();
+        }
+        return process.exitValue();
+    }
+
+    @Override
+    public void close() throws InterruptedException {
+        if (process.isAlive()) {
+            stop(Duration.ofSeconds(10));
+        }
+    }
+}
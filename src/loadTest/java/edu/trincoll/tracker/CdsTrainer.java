@@ -0,0 +1,92 @@
+package edu.trincoll.tracker;
+
+import java.io.File;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * CDS training run (run via {@code ./gradlew trainCds}).
+ *
+ * Boots the app with -XX:ArchiveClassesAtExit, serves one request of each kind the API
+ * handles (list, create, get, update, search, delete) so the archive includes the
+ * first-request path (DispatcherServlet init, Jackson converters, Tomcat request
+ * processing), then stops the JVM with SIGTERM so the archive is written at exit.
+ *
+ * Configuration (system properties, set by Gradle):
+ *  - cds.java     java executable used to launch the app
+ *  - cds.jar      extracted jar to train on (must match the jar used at runtime)
+ *  - cds.archive  archive to write
+ *  - cds.aot      whether to train with -Dspring.aot.enabled=true (default true)
+ */
+public class CdsTrainer {
+
+    public static void main(String[] args) throws Exception {
+        File archive = new File(required("cds.archive"));
+        archive.getAbsoluteFile().getParentFile().mkdirs();
+        archive.delete();
+
+        List<String> jvmArgs = new ArrayList<>();
+        jvmArgs.add("-XX:ArchiveClassesAtExit=" + archive.getAbsolutePath());
+        if (Boolean.parseBoolean(System.getProperty("cds.aot", "true"))) {
+            jvmArgs.add("-Dspring.aot.enabled=true");
+        }
+
+        HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(2))
+                .build();
+
+        try (AppProcess app = AppProcess.start(required("cds.java"), jvmArgs, required("cds.jar"), null)) {
+            long millis = app.awaitFirstRequest(client) / 1_000_000;
+            System.out.println("Training app ready in " + millis + " ms; exercising endpoints");
+            exercise(client, app);
+            // archive dumping happens during exit and can take a while
+            app.stop(Duration.ofSeconds(120));
+        }
+
+        if (archive.length() == 0) {
+            throw new IllegalStateException("Training run did not write " + archive);
+        }
+        System.out.println("Wrote " + archive + " (" + archive.length() / 1024 + " KiB)");
+    }
+
+    private static void exercise(HttpClient client, AppProcess app) throws Exception {
+        String body = "{\"name\":\"cds-training\",\"description\":\"training run\"}";
+        String updated = "{\"name\":\"cds-training\",\"description\":\"updated\",\"completed\":true}";
+        send(client, app, "POST", "/api/Habits", body, 201);
+        send(client, app, "GET", "/api/Habits/1", null, 200);
+        send(client, app, "PUT", "/api/Habits/1", updated, 200);
+        send(client, app, "GET", "/api/Habits/search?name=cds", null, 200);
+        send(client, app, "GET", "/api/Habits", null, 200);
+        send(client, app, "DELETE", "/api/Habits/1", null, 204);
+        send(client, app, "GET", "/api/Habits/1", null, 404);
+    }
+
+    private static void send(HttpClient client, AppProcess app, String method, String path,
+                             String json, int expected) throws Exception {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(app.base().resolve(path))
+                .timeout(Duration.ofSeconds(10));
+        if (json == null) {
+            builder.method(method, HttpRequest.BodyPublishers.noBody());
+        } else {
+            builder.header("Content-Type", "application/json")
+                    .method(method, HttpRequest.BodyPublishers.ofString(json));
+        }
+        int status = client.send(builder.build(), HttpResponse.BodyHandlers.discarding()).statusCode();
+        if (status != expected) {
+            throw new IllegalStateException(method + " " + path + " returned " + status + ", expected " + expected);
+        }
+    }
+
+    private static String required(String property) {
+        String value = System.getProperty(property);
+        if (value == null || value.isBlank()) {
+            throw new IllegalStateException("Missing system property " + property + " (run via ./gradlew trainCds)");
+        }
+        return value;
+    }
+}
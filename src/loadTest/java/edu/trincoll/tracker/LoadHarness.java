@@ -0,0 +1,453 @@
+package edu.trincoll.tracker;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.HttpTimeoutException;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * End-to-end HTTP load harness for the Habit API (run via {@code ./gradlew loadTest}).
+ *
+ * Boots TrackerApplication from the boot jar in a separate JVM, seeds habits, then drives a
+ * weighted mix of operations at a fixed arrival rate. Every request runs on its own virtual
+ * thread and its latency is measured from its <em>intended</em> start time, so a stalled
+ * server shows up as latency instead of silently lowering the offered load (no coordinated
+ * omission).
+ *
+ * Configuration (system properties, forwarded from -Pload.*):
+ *  - load.habits    habits seeded before the run (default 1000)
+ *  - load.seedConcurrency  max seed requests in flight (default 64)
+ *  - load.rate      target requests/second (default 1000)
+ *  - load.warmup    warm-up seconds, not recorded (default 10)
+ *  - load.duration  measured seconds (default 30)
+ *  - load.timeout   per-request timeout in seconds (default 10)
+ *  - load.mix       weights, e.g. getById=40,getAll=5,search=15,create=10,update=15,delete=5,complete=10
+ *  - load.url       target an already running server instead of booting one
+ *  - load.jar / load.java / load.appLog   how to boot the app (set by Gradle)
+ *  - load.cdsArchive  if set, boot with this CDS archive and Spring AOT (set by -Pload.fast=true)
+ */
+public class LoadHarness {
+
+    enum Op {
+        GET_BY_ID("getById"), GET_ALL("getAll"), SEARCH("search"),
+        CREATE("create"), UPDATE("update"), DELETE("delete"), COMPLETE("complete");
+
+        final String label;
+
+        Op(String label) {
+            this.label = label;
+        }
+    }
+
+    /**
+     * Per-endpoint results. Latencies are in microseconds and cover 2xx responses plus timed-out
+     * requests, which are recorded at their full wait so a stalled server shows in the tail.
+     */
+    static final class Stats {
+        final Histogram latency = new ConcurrentHistogram(3);
+        final LongAdder timeouts = new LongAdder();
+        final LongAdder notFound = new LongAdder();
+        final LongAdder non2xx = new LongAdder();
+        final LongAdder failed = new LongAdder();
+    }
+
+    /** Client-side view of a habit that exists on the server. */
+    record LiveHabit(long id, String name, boolean completed) {
+    }
+
+    /** Habits that currently exist on the server, with O(1) put, remove and uniform random pick. */
+    static final class LiveHabits {
+        private final List<LiveHabit> habits = new ArrayList<>();
+        private final Map<Long, Integer> indexOf = new HashMap<>();
+
+        synchronized void add(LiveHabit habit) {
+            Integer i = indexOf.putIfAbsent(habit.id(), habits.size());
+            if (i == null) {
+                habits.add(habit);
+            } else {
+                habits.set(i, habit);
+            }
+        }
+
+        /** Record new state for a habit that is still live; ignored if it has been removed. */
+        synchronized void replace(LiveHabit habit) {
+            Integer i = indexOf.get(habit.id());
+            if (i != null) {
+                habits.set(i, habit);
+            }
+        }
+
+        synchronized void remove(long id) {
+            Integer i = indexOf.remove(id);
+            if (i == null) {
+                return;
+            }
+            LiveHabit last = habits.remove(habits.size() - 1);
+            if (i < habits.size()) {
+                habits.set(i, last);
+                indexOf.put(last.id(), i);
+            }
+        }
+
+        /** A random live habit, or null when none exist. */
+        synchronized LiveHabit random(Random rnd) {
+            return habits.isEmpty() ? null : habits.get(rnd.nextInt(habits.size()));
+        }
+
+        synchronized int size() {
+            return habits.size();
+        }
+    }
+
+    /** A request plus the habit state it will leave behind on success (null for reads of the collection). */
+    private record Call(HttpRequest request, LiveHabit target) {
+    }
+
+    private static final String DEFAULT_MIX =
+            "getById=40,getAll=5,search=15,create=10,update=15,delete=5,complete=10";
+    private static final Pattern ID_FIELD = Pattern.compile("\"id\"\\s*:\\s*(\\d+)");
+
+    private final URI base;
+    private final HttpClient client;
+    private final Duration requestTimeout;
+    private final Map<Op, Stats> stats = new EnumMap<>(Op.class);
+    private final Op[] ops;
+    private final int[] cumulativeWeights;
+    /** Targets for id-based operations; maintained from 201 creates, 200 updates and 204 deletes. */
+    private final LiveHabits live = new LiveHabits();
+    private final AtomicLong nameSeq = new AtomicLong();
+
+    LoadHarness(URI base, String mix, Duration requestTimeout) {
+        this.base = base;
+        this.requestTimeout = requestTimeout;
+        this.client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+        for (Op op : Op.values()) {
+            stats.put(op, new Stats());
+        }
+
+        Map<Op, Integer> weights = parseMix(mix);
+        this.ops = weights.keySet().toArray(new Op[0]);
+        this.cumulativeWeights = new int[ops.length];
+        int total = 0;
+        for (int i = 0; i < ops.length; i++) {
+            total += weights.get(ops[i]);
+            cumulativeWeights[i] = total;
+        }
+        if (total <= 0) {
+            throw new IllegalArgumentException("load.mix must have a positive weight: " + mix);
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        int habits = Integer.getInteger("load.habits", 1000);
+        int seedConcurrency = Integer.getInteger("load.seedConcurrency", 64);
+        int rate = Integer.getInteger("load.rate", 1000);
+        int warmup = Integer.getInteger("load.warmup", 10);
+        int duration = Integer.getInteger("load.duration", 30);
+        String mix = System.getProperty("load.mix", DEFAULT_MIX);
+        String url = System.getProperty("load.url");
+        Duration timeout = Duration.ofSeconds(Integer.getInteger("load.timeout", 10));
+
+        List<String> jvmArgs = new ArrayList<>();
+        String cdsArchive = System.getProperty("load.cdsArchive");
+        if (cdsArchive != null && !cdsArchive.isBlank()) {
+            // one argv element per flag, so paths with spaces survive
+            jvmArgs.add("-XX:SharedArchiveFile=" + cdsArchive);
+            jvmArgs.add("-Dspring.aot.enabled=true");
+        }
+
+        AppProcess app = null;
+        try {
+            URI base;
+            if (url != null && !url.isBlank()) {
+                base = URI.create(url);
+            } else {
+                String appLog = System.getProperty("load.appLog");
+                app = AppProcess.start(
+                        System.getProperty("load.java", ProcessHandle.current().info().command().orElse("java")),
+                        jvmArgs, required("load.jar"), appLog == null ? null : new File(appLog));
+                base = app.base();
+                System.out.println("Booted " + required("load.jar") + " on " + base);
+            }
+
+            LoadHarness harness = new LoadHarness(base, mix, timeout);
+            if (app != null) {
+                app.awaitFirstRequest(harness.client);
+            } else {
+                AppProcess.awaitReady(harness.client, base, null);
+            }
+            int seeded = harness.seed(habits, seedConcurrency);
+            harness.run(rate, warmup, duration);
+            harness.report(rate, duration, seeded);
+        } finally {
+            if (app != null) {
+                app.close();
+            }
+        }
+    }
+
+    // --------- Seeding ---------
+
+    /** Creates up to {@code habits} habits, at most {@code concurrency} at a time; returns how many got a 201. */
+    private int seed(int habits, int concurrency) throws InterruptedException {
+        Semaphore inFlight = new Semaphore(Math.max(1, concurrency));
+        LongAdder created = new LongAdder();
+        LongAdder rejected = new LongAdder();
+        List<String> errors = Collections.synchronizedList(new ArrayList<>());
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < habits; i++) {
+                inFlight.acquire();
+                executor.submit(() -> {
+                    try {
+                        Call call = buildCall(Op.CREATE);
+                        HttpResponse<String> response = client.send(call.request(), HttpResponse.BodyHandlers.ofString());
+                        if (response.statusCode() == 201) {
+                            trackCreated(call, response);
+                            created.increment();
+                        } else {
+                            rejected.increment();
+                        }
+                    } catch (IOException | InterruptedException e) {
+                        errors.add(e.toString());
+                    } finally {
+                        inFlight.release();
+                    }
+                });
+            }
+        }
+
+        int seeded = created.intValue();
+        System.out.println("Seeded " + seeded + " of " + habits + " habits (" + live.size() + " live)");
+        if (seeded < habits) {
+            System.err.printf("WARNING: seeding fell short by %d (%d non-201 responses, %d request errors%s)%n",
+                    habits - seeded, rejected.sum(), errors.size(),
+                    errors.isEmpty() ? "" : ", first: " + errors.get(0));
+            if (seeded == 0 && habits > 0) {
+                throw new IllegalStateException("Seeding created no habits; aborting load test");
+            }
+        }
+        return seeded;
+    }
+
+    // --------- Open-loop driver ---------
+
+    private void run(int rate, int warmupSeconds, int durationSeconds) {
+        long start = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(100);
+        long measureFrom = start + TimeUnit.SECONDS.toNanos(warmupSeconds);
+        long end = measureFrom + TimeUnit.SECONDS.toNanos(durationSeconds);
+        System.out.printf("Driving %d req/s for %ds warm-up + %ds measured%n", rate, warmupSeconds, durationSeconds);
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (long i = 0; ; i++) {
+                long intended = start + (i * 1_000_000_000L) / rate;
+                if (intended >= end) {
+                    break;
+                }
+                long wait = intended - System.nanoTime();
+                if (wait > 0) {
+                    LockSupport.parkNanos(wait);
+                }
+                Op op = pick(ThreadLocalRandom.current());
+                boolean record = intended >= measureFrom;
+                executor.submit(() -> execute(op, intended, record));
+            }
+        }
+    }
+
+    private void execute(Op op, long intendedStart, boolean record) {
+        Stats s = stats.get(op);
+        try {
+            Call call = buildCall(op);
+            HttpResponse<String> response = client.send(call.request(), HttpResponse.BodyHandlers.ofString());
+            long micros = (System.nanoTime() - intendedStart) / 1_000;
+            int status = response.statusCode();
+            if (op == Op.CREATE) {
+                trackCreated(call, response);
+            } else if (op == Op.DELETE && status == 204) {
+                live.remove(call.target().id());
+            } else if ((op == Op.UPDATE || op == Op.COMPLETE) && status == 200) {
+                live.replace(call.target());
+            }
+            if (record) {
+                if (status / 100 == 2) {
+                    s.latency.recordValue(micros);
+                } else if (status == 404) {
+                    // target deleted by a concurrent request: not a server error, and not a real hit
+                    s.notFound.increment();
+                } else {
+                    s.non2xx.increment();
+                }
+            }
+        } catch (HttpTimeoutException e) {
+            if (record) {
+                s.timeouts.increment();
+                s.latency.recordValue((System.nanoTime() - intendedStart) / 1_000);
+            }
+        } catch (IOException | InterruptedException e) {
+            if (record) {
+                s.failed.increment();
+            }
+        }
+    }
+
+    private Op pick(Random rnd) {
+        int r = rnd.nextInt(cumulativeWeights[cumulativeWeights.length - 1]);
+        for (int i = 0; i < cumulativeWeights.length; i++) {
+            if (r < cumulativeWeights[i]) {
+                return ops[i];
+            }
+        }
+        return ops[ops.length - 1];
+    }
+
+    private Call buildCall(Op op) {
+        ThreadLocalRandom rnd = ThreadLocalRandom.current();
+        return switch (op) {
+            case GET_ALL -> new Call(get("/api/Habits"), null);
+            case SEARCH -> new Call(get("/api/Habits/search?name=habit-" + rnd.nextInt(100)), null);
+            case CREATE -> {
+                // id is unknown until the 201 arrives; see trackCreated
+                LiveHabit created = new LiveHabit(-1, "habit-" + nameSeq.incrementAndGet(), false);
+                yield new Call(json("POST", "/api/Habits", habitJson(created.name(), false)), created);
+            }
+            case GET_BY_ID, UPDATE, COMPLETE, DELETE -> {
+                // With no live habits left this targets id -1, which surfaces in the 404 column.
+                LiveHabit current = live.random(rnd);
+                if (current == null) {
+                    current = new LiveHabit(-1, "habit-missing", false);
+                }
+                String path = "/api/Habits/" + current.id();
+                LiveHabit next = switch (op) {
+                    // a rename that keeps the habit's completion state
+                    case UPDATE -> new LiveHabit(current.id(), "habit-" + nameSeq.incrementAndGet(), current.completed());
+                    // a completion that keeps the habit's name
+                    case COMPLETE -> new LiveHabit(current.id(), current.name(), true);
+                    default -> current;
+                };
+                HttpRequest request = switch (op) {
+                    case GET_BY_ID -> get(path);
+                    case UPDATE, COMPLETE -> json("PUT", path, habitJson(next.name(), next.completed()));
+                    default -> HttpRequest.newBuilder(base.resolve(path)).timeout(requestTimeout).DELETE().build();
+                };
+                yield new Call(request, next);
+            }
+        };
+    }
+
+    private HttpRequest get(String path) {
+        return HttpRequest.newBuilder(base.resolve(path)).timeout(requestTimeout).GET().build();
+    }
+
+    private HttpRequest json(String method, String path, String body) {
+        return HttpRequest.newBuilder(base.resolve(path))
+                .timeout(requestTimeout)
+                .header("Content-Type", "application/json")
+                .method(method, HttpRequest.BodyPublishers.ofString(body))
+                .build();
+    }
+
+    private static String habitJson(String name, boolean completed) {
+        return "{\"name\":\"" + name + "\",\"description\":\"load test\",\"completed\":" + completed + "}";
+    }
+
+    private void trackCreated(Call call, HttpResponse<String> response) {
+        if (response.statusCode() == 201) {
+            Matcher m = ID_FIELD.matcher(response.body());
+            if (m.find()) {
+                live.add(new LiveHabit(Long.parseLong(m.group(1)), call.target().name(), false));
+            }
+        }
+    }
+
+    // --------- Reporting ---------
+
+    private void report(int rate, int durationSeconds, int habits) {
+        System.out.printf("%n=== LOAD TEST: %d req/s target, %ds measured, %d seeded habits ===%n",
+                rate, durationSeconds, habits);
+        System.out.printf("%-10s %9s %9s %10s %10s %10s %10s %8s %7s %8s %7s%n",
+                "endpoint", "2xx", "2xx/s", "p50 ms", "p99 ms", "p99.9 ms", "max ms",
+                "timeout", "404", "non-2xx", "failed");
+
+        Histogram total = new Histogram(3);
+        long[] totals = new long[4];
+        for (Op op : Op.values()) {
+            Stats s = stats.get(op);
+            Histogram h = s.latency.copy();
+            long[] counts = {s.timeouts.sum(), s.notFound.sum(), s.non2xx.sum(), s.failed.sum()};
+            if (h.getTotalCount() == 0 && Arrays.stream(counts).allMatch(c -> c == 0)) {
+                continue;
+            }
+            total.add(h);
+            for (int i = 0; i < totals.length; i++) {
+                totals[i] += counts[i];
+            }
+            printRow(op.label, h, durationSeconds, counts);
+        }
+        printRow("TOTAL", total, durationSeconds, totals);
+        System.out.println("Latency is measured from each request's intended start time (open loop);"
+                + " percentiles cover 2xx responses and timeouts.");
+    }
+
+    /** {@code counts} is timeouts, 404s, other non-2xx, failed. */
+    private static void printRow(String label, Histogram h, int durationSeconds, long[] counts) {
+        long ok = h.getTotalCount() - counts[0];
+        System.out.printf("%-10s %9d %9.1f %10.3f %10.3f %10.3f %10.3f %8d %7d %8d %7d%n",
+                label,
+                ok,
+                ok / (double) durationSeconds,
+                h.getValueAtPercentile(50) / 1000.0,
+                h.getValueAtPercentile(99) / 1000.0,
+                h.getValueAtPercentile(99.9) / 1000.0,
+                h.getMaxValue() / 1000.0,
+                counts[0], counts[1], counts[2], counts[3]);
+    }
+
+    // --------- Configuration ---------
+
+    static Map<Op, Integer> parseMix(String mix) {
+        Map<Op, Integer> weights = new EnumMap<>(Op.class);
+        for (String part : mix.split(",")) {
+            if (part.isBlank()) {
+                continue;
+            }
+            String[] kv = part.trim().split("=");
+            if (kv.length != 2) {
+                throw new IllegalArgumentException("Bad load.mix entry: " + part);
+            }
+            Op op = Arrays.stream(Op.values())
+                    .filter(o -> o.label.equalsIgnoreCase(kv[0].trim()))
+                    .findFirst()
+                    .orElseThrow(() -> new IllegalArgumentException("Unknown operation in load.mix: " + kv[0]));
+            int weight = Integer.parseInt(kv[1].trim());
+            if (weight > 0) {
+                weights.put(op, weight);
+            }
+        }
+        return weights;
+    }
+
+    private static String required(String property) {
+        String value = System.getProperty(property);
+        if (value == null || value.isBlank()) {
+            throw new IllegalStateException("Missing system property " + property + " (run via ./gradlew loadTest)");
+        }
+        return value;
+    }
+}
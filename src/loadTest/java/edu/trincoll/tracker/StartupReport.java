@@ -0,0 +1,89 @@
+package edu.trincoll.tracker;
+
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Time-to-first-request comparison for the fast-startup setup (run via {@code ./gradlew startupReport}).
+ *
+ * Besides the plain bootJar and the full AOT + CDS setup, each change is also measured on its
+ * own (extracted jar, + AOT, + CDS) so the report shows which one pays off.
+ *
+ * Each variant is launched once untimed to warm the OS page cache, then {@code startup.runs}
+ * times; a run ends at the first 200 from GET /api/Habits.
+ *
+ * Configuration (system properties, set by Gradle):
+ *  - startup.java          java executable used to launch the app
+ *  - startup.fatJar        plain bootJar
+ *  - startup.extractedJar  bootJar extracted with the jarmode tools layout
+ *  - startup.cdsArchive    CDS archive trained with Spring AOT enabled
+ *  - startup.cdsArchiveNoAot  CDS archive trained without Spring AOT
+ *  - startup.runs          timed runs per variant (default 5)
+ */
+public class StartupReport {
+
+    private record Variant(String label, String jar, List<String> jvmArgs) {
+    }
+
+    public static void main(String[] args) throws Exception {
+        String java = required("startup.java");
+        int runs = Integer.getInteger("startup.runs", 5);
+
+        String extracted = required("startup.extractedJar");
+        String aot = "-Dspring.aot.enabled=true";
+        List<Variant> variants = List.of(
+                new Variant("bootJar (current)", required("startup.fatJar"), List.of()),
+                new Variant("extracted jar", extracted, List.of()),
+                new Variant("extracted + AOT", extracted, List.of(aot)),
+                new Variant("extracted + AppCDS", extracted, List.of(
+                        "-XX:SharedArchiveFile=" + required("startup.cdsArchiveNoAot"))),
+                new Variant("extracted + AOT + AppCDS", extracted, List.of(
+                        "-XX:SharedArchiveFile=" + required("startup.cdsArchive"), aot)));
+
+        HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofMillis(200))
+                .build();
+
+        List<List<Long>> results = new ArrayList<>();
+        for (Variant variant : variants) {
+            timeToFirstRequestMillis(client, java, variant); // warm the OS page cache; not counted
+            List<Long> millis = new ArrayList<>();
+            for (int i = 0; i < runs; i++) {
+                millis.add(timeToFirstRequestMillis(client, java, variant));
+            }
+            Collections.sort(millis);
+            results.add(millis);
+        }
+
+        System.out.printf("%n=== TIME TO FIRST REQUEST (%d runs each) ===%n", runs);
+        long baselineMedian = median(results.get(0));
+        for (int i = 0; i < variants.size(); i++) {
+            List<Long> ms = results.get(i);
+            System.out.printf("%-26s min %6d ms   median %6d ms   max %6d ms   %5.2fx%n",
+                    variants.get(i).label(), ms.get(0), median(ms), ms.get(ms.size() - 1),
+                    baselineMedian / (double) median(ms));
+        }
+    }
+
+    private static long timeToFirstRequestMillis(HttpClient client, String java, Variant variant) throws Exception {
+        try (AppProcess app = AppProcess.start(java, variant.jvmArgs(), variant.jar(), null)) {
+            return app.awaitFirstRequest(client) / 1_000_000;
+        }
+    }
+
+    private static long median(List<Long> sorted) {
+        return sorted.get(sorted.size() / 2);
+    }
+
+    private static String required(String property) {
+        String value = System.getProperty(property);
+        if (value == null || value.isBlank()) {
+            throw new IllegalStateException("Missing system property " + property + " (run via ./gradlew startupReport)");
+        }
+        return value;
+    }
+}
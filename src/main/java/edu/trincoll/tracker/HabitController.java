@@ -6,119 +6,180 @@ import org.springframework.web.bind.annotation.*;
 import java.time.LocalDate;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.atomic.AtomicLong;
-import java.util.stream.Collectors;
-
+import java.util.regex.Pattern;
+
+/**
+ * Habit API, partitioned per tenant.
+ *
+ * The tenant is taken from the {tenant} path segment (/api/tenants/{tenant}/Habits...)
+ * or, on the plain /api/Habits routes, from the X-Tenant-Id header; requests with
+ * neither use the "default" tenant. Each tenant gets its own {@link HabitStore},
+ * created lazily on the first write. Partitions are in-memory only: there is no
+ * backing store, so dropping one deletes that tenant's habits for good.
+ */
 @RestController
 @RequestMapping(value = "/api", produces = MediaType.APPLICATION_JSON_VALUE)
 public class HabitController {
 
-    private static final Map<Long, Habit> STORE = new ConcurrentHashMap<>();
-    private static final AtomicLong ID_SEQ = new AtomicLong(1);
+    static final String TENANT_HEADER = "X-Tenant-Id";
+    static final String DEFAULT_TENANT = "default";
+    private static final Pattern TENANT_ID = Pattern.compile("[A-Za-z0-9_-]{1,64}");
+
+    private static final Map<String, HabitStore> PARTITIONS = new ConcurrentHashMap<>();
 
-    /** Test hook to reset in-memory state. */
+    /** Test hook to reset in-memory state (all tenants). */
     public static void clearStore() {
-        STORE.clear();
-        ID_SEQ.set(1);
+        for (String tenant : PARTITIONS.keySet()) {
+            deleteTenant(tenant);
+        }
+    }
+
+    /**
+     * Test hook: permanently delete one tenant's habits, leaving other tenants untouched.
+     * Returns false if the tenant had no partition.
+     */
+    static boolean deleteTenant(String tenant) {
+        HabitStore store = PARTITIONS.remove(tenant);
+        if (store == null) {
+            return false;
+        }
+        store.close();
+        return true;
     }
 
     /** GET /api/Habits — list all habits (sorted by id). */
-    @GetMapping("/Habits")
-    public ResponseEntity<List<Habit>> getAll() {
-        List<Habit> habits = STORE.values().stream()
-                .sorted(Comparator.comparing(Habit::getId))
-                .collect(Collectors.toList());
-        return ResponseEntity.ok(habits);
+    @GetMapping({"/Habits", "/tenants/{tenant}/Habits"})
+    public ResponseEntity<List<Habit>> getAll(@PathVariable(required = false) String tenant,
+                                              @RequestHeader(value = TENANT_HEADER, required = false) String tenantHeader) {
+        String t = resolveTenant(tenant, tenantHeader);
+        if (t == null) {
+            return ResponseEntity.badRequest().build();
+        }
+        HabitStore store = PARTITIONS.get(t);
+        return ResponseEntity.ok(store == null ? List.of() : store.all());
     }
 
     /** GET /api/Habits/{id} — get one or 404. */
-    @GetMapping("/Habits/{id}")
-    public ResponseEntity<Habit> getById(@PathVariable Long id) {
-        Habit habit = STORE.get(id);
+    @GetMapping({"/Habits/{id}", "/tenants/{tenant}/Habits/{id}"})
+    public ResponseEntity<Habit> getById(@PathVariable(required = false) String tenant,
+                                         @RequestHeader(value = TENANT_HEADER, required = false) String tenantHeader,
+                                         @PathVariable Long id) {
+        String t = resolveTenant(tenant, tenantHeader);
+        if (t == null) {
+            return ResponseEntity.badRequest().build();
+        }
+        HabitStore store = PARTITIONS.get(t);
+        Habit habit = (store == null) ? null : store.get(id);
         return (habit == null)
                 ? ResponseEntity.status(HttpStatus.NOT_FOUND).build()
                 : ResponseEntity.ok(habit);
     }
 
-    /** POST /api/Habits — create; validate name and uniqueness. */
-    @PostMapping(path = "/Habits", consumes = MediaType.APPLICATION_JSON_VALUE)
-    public ResponseEntity<Habit> create(@RequestBody Habit body) {
-        if (body.getName() == null || body.getName().isBlank()) {
+    /** POST /api/Habits — create; validate name and uniqueness within the tenant. */
+    @PostMapping(path = {"/Habits", "/tenants/{tenant}/Habits"}, consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<Habit> create(@PathVariable(required = false) String tenant,
+                                        @RequestHeader(value = TENANT_HEADER, required = false) String tenantHeader,
+                                        @RequestBody Habit body) {
+        String t = resolveTenant(tenant, tenantHeader);
+        if (t == null || body.getName() == null || body.getName().isBlank()) {
             return ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
         }
-        boolean duplicate = STORE.values().stream()
-                .anyMatch(h -> Objects.equals(h.getName(), body.getName()));
-        if (duplicate) {
-            return ResponseEntity.status(HttpStatus.CONFLICT).build();
-        }
 
-        long id = ID_SEQ.getAndIncrement();
         Habit toSave = new Habit();
-        toSave.setId(id);
         toSave.setName(body.getName());
         toSave.setDescription(body.getDescription());
         toSave.setCompleted(body.isCompleted()); // default false unless provided
 
-        STORE.put(id, toSave);
-        return ResponseEntity.status(HttpStatus.CREATED).body(toSave);
+        while (true) {
+            HabitStore store = PARTITIONS.computeIfAbsent(t, k -> new HabitStore());
+            switch (store.insert(toSave)) {
+                case OK:
+                    return ResponseEntity.status(HttpStatus.CREATED).body(toSave);
+                case CLOSED:
+                    // tenant was deleted after we looked it up; retry on a fresh partition
+                    PARTITIONS.remove(t, store);
+                    continue;
+                default:
+                    return ResponseEntity.status(HttpStatus.CONFLICT).build();
+            }
+        }
     }
 
     /** POST /api/habit — singular path used by one test. */
     @PostMapping(path = "/habit", consumes = MediaType.APPLICATION_JSON_VALUE)
-    public ResponseEntity<Habit> createViaSingular(@RequestBody Habit body) {
-        return create(body);
+    public ResponseEntity<Habit> createViaSingular(@RequestHeader(value = TENANT_HEADER, required = false) String tenantHeader,
+                                                   @RequestBody Habit body) {
+        return create(null, tenantHeader, body);
     }
 
     /** PUT /api/Habits/{id} — update name/description/completed; 404 if missing; guard duplicate names. */
-    @PutMapping(path = "/Habits/{id}", consumes = MediaType.APPLICATION_JSON_VALUE)
-    public ResponseEntity<Habit> update(@PathVariable Long id, @RequestBody Habit body) {
-        Habit existing = STORE.get(id);
-        if (existing == null) {
+    @PutMapping(path = {"/Habits/{id}", "/tenants/{tenant}/Habits/{id}"}, consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<Habit> update(@PathVariable(required = false) String tenant,
+                                        @RequestHeader(value = TENANT_HEADER, required = false) String tenantHeader,
+                                        @PathVariable Long id,
+                                        @RequestBody Habit body) {
+        String t = resolveTenant(tenant, tenantHeader);
+        if (t == null) {
+            return ResponseEntity.badRequest().build();
+        }
+        HabitStore store = PARTITIONS.get(t);
+        if (store == null || store.get(id) == null) {
             return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
         }
         if (body.getName() == null || body.getName().isBlank()) {
             return ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
         }
-        boolean duplicateName = STORE.values().stream()
-                .anyMatch(other -> !Objects.equals(other.getId(), id)
-                        && Objects.equals(other.getName(), body.getName()));
-        if (duplicateName) {
-            return ResponseEntity.status(HttpStatus.CONFLICT).build();
-        }
-
-        existing.setName(body.getName());
-        existing.setDescription(body.getDescription());
 
         // If payload has lastCompleted (e.g., from completeToday()), treat as completed=true.
         boolean completedFlag = body.isCompleted();
         if (!completedFlag && body.getLastCompleted() != null && !body.getLastCompleted().isAfter(LocalDate.now())) {
             completedFlag = true;
         }
-        existing.setCompleted(completedFlag);
 
-        return ResponseEntity.ok(existing);
+        HabitStore.Result result = store.update(id, body.getName(), body.getDescription(), completedFlag);
+        return switch (result.outcome()) {
+            case OK -> ResponseEntity.ok(result.habit());
+            // CLOSED: the tenant was deleted concurrently, so the habit no longer exists
+            case NOT_FOUND, CLOSED -> ResponseEntity.status(HttpStatus.NOT_FOUND).build();
+            case CONFLICT -> ResponseEntity.status(HttpStatus.CONFLICT).build();
+        };
     }
 
     /** DELETE /api/Habits/{id} — 204 or 404. */
-    @DeleteMapping("/Habits/{id}")
-    public ResponseEntity<Void> delete(@PathVariable Long id) {
-        Habit removed = STORE.remove(id);
-        return (removed == null)
-                ? ResponseEntity.status(HttpStatus.NOT_FOUND).build()
-                : ResponseEntity.noContent().build();
+    @DeleteMapping({"/Habits/{id}", "/tenants/{tenant}/Habits/{id}"})
+    public ResponseEntity<Void> delete(@PathVariable(required = false) String tenant,
+                                       @RequestHeader(value = TENANT_HEADER, required = false) String tenantHeader,
+                                       @PathVariable Long id) {
+        String t = resolveTenant(tenant, tenantHeader);
+        if (t == null) {
+            return ResponseEntity.badRequest().build();
+        }
+        HabitStore store = PARTITIONS.get(t);
+        return (store != null && store.delete(id) == HabitStore.Outcome.OK)
+                ? ResponseEntity.noContent().build()
+                : ResponseEntity.status(HttpStatus.NOT_FOUND).build();
     }
 
     /** GET /api/Habits/search?name=foo — case-insensitive contains on name. */
-    @GetMapping("/Habits/search")
-    public ResponseEntity<List<Habit>> searchByName(@RequestParam("name") String name) {
-        if (name == null) {
+    @GetMapping({"/Habits/search", "/tenants/{tenant}/Habits/search"})
+    public ResponseEntity<List<Habit>> searchByName(@PathVariable(required = false) String tenant,
+                                                    @RequestHeader(value = TENANT_HEADER, required = false) String tenantHeader,
+                                                    @RequestParam("name") String name) {
+        String t = resolveTenant(tenant, tenantHeader);
+        if (t == null || name == null) {
             return ResponseEntity.badRequest().build();
         }
-        String q = name.toLowerCase(Locale.ROOT);
-        List<Habit> results = STORE.values().stream()
-                .filter(h -> h.getName() != null && h.getName().toLowerCase(Locale.ROOT).contains(q))
-                .sorted(Comparator.comparing(Habit::getId))
-                .collect(Collectors.toList());
-        return ResponseEntity.ok(results);
+        HabitStore store = PARTITIONS.get(t);
+        return ResponseEntity.ok(store == null
+                ? List.of()
+                : store.searchByName(name.toLowerCase(Locale.ROOT)));
+    }
+
+    /** Path segment wins over header; null means the tenant id is malformed. */
+    private static String resolveTenant(String pathTenant, String headerTenant) {
+        String t = (pathTenant != null) ? pathTenant
+                : (headerTenant != null && !headerTenant.isBlank()) ? headerTenant.trim()
+                : DEFAULT_TENANT;
+        return TENANT_ID.matcher(t).matches() ? t : null;
     }
 }
@@ -0,0 +1,180 @@
+package edu.trincoll.tracker;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * One tenant's partition of habits.
+ *
+ * Each partition owns its id sequence, its name-uniqueness scope and its indexes,
+ * so tenants never share locks or scan each other's data:
+ *  - byId is kept sorted, so list/search return id order without a sort step
+ *  - idByName makes the duplicate-name check a single putIfAbsent instead of a scan
+ *
+ * Name claims are lock-free. Updates and deletes of the same id serialize on one of a
+ * fixed set of private stripe locks, so writers to different habits rarely contend.
+ * Readers take no lock and may observe an update that is still being applied.
+ *
+ * A store is closed when its tenant is deleted. Writes run under the shared side of
+ * a read/write lock and close() takes the exclusive side, so every write either lands
+ * before the close or reports CLOSED; none can succeed into a store nobody can reach.
+ */
+final class HabitStore {
+
+    enum Outcome { OK, NOT_FOUND, CONFLICT, CLOSED }
+
+    /** Outcome of an update, plus the updated habit when it succeeded. */
+    record Result(Outcome outcome, Habit habit) {
+    }
+
+    /** Placeholder id for a name claimed by a create that has not been assigned an id yet. */
+    private static final long PENDING = -1L;
+    private static final int STRIPES = 16; // power of two
+
+    private final ConcurrentSkipListMap<Long, Habit> byId = new ConcurrentSkipListMap<>();
+    private final Map<String, Long> idByName = new ConcurrentHashMap<>();
+    private final AtomicLong idSeq = new AtomicLong(1);
+    private final Object[] stripes = new Object[STRIPES];
+    private final ReentrantReadWriteLock lifecycle = new ReentrantReadWriteLock();
+    private boolean closed; // guarded by lifecycle
+
+    HabitStore() {
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new Object();
+        }
+    }
+
+    Habit get(Long id) {
+        return id == null ? null : byId.get(id);
+    }
+
+    /** All habits in id order. */
+    List<Habit> all() {
+        return new ArrayList<>(byId.values());
+    }
+
+    /** Habits whose name contains the (already lower-cased) query, in id order. */
+    List<Habit> searchByName(String lowerCaseQuery) {
+        List<Habit> results = new ArrayList<>();
+        for (Habit h : byId.values()) {
+            String name = h.getName();
+            if (name != null && name.toLowerCase(Locale.ROOT).contains(lowerCaseQuery)) {
+                results.add(h);
+            }
+        }
+        return results;
+    }
+
+    /**
+     * Assign an id to the habit and store it, unless its name is already taken.
+     * Returns CONFLICT (and consumes no id) on a duplicate name.
+     */
+    Outcome insert(Habit habit) {
+        lifecycle.readLock().lock();
+        try {
+            if (closed) {
+                return Outcome.CLOSED;
+            }
+            String name = habit.getName();
+            if (idByName.putIfAbsent(name, PENDING) != null) {
+                return Outcome.CONFLICT;
+            }
+            long id = idSeq.getAndIncrement();
+            habit.setId(id);
+            // Map the name to the real id before the habit becomes reachable by id, so a racing
+            // delete or same-name update never sees PENDING for a visible habit.
+            idByName.put(name, id);
+            byId.put(id, habit);
+            return Outcome.OK;
+        } finally {
+            lifecycle.readLock().unlock();
+        }
+    }
+
+    /** Rename (guarding uniqueness) and update the habit with {@code id}. */
+    Result update(long id, String name, String description, boolean completed) {
+        lifecycle.readLock().lock();
+        try {
+            if (closed) {
+                return new Result(Outcome.CLOSED, null);
+            }
+            return updateOpen(id, name, description, completed);
+        } finally {
+            lifecycle.readLock().unlock();
+        }
+    }
+
+    private Result updateOpen(long id, String name, String description, boolean completed) {
+        synchronized (stripeFor(id)) {
+            Habit existing = byId.get(id);
+            if (existing == null) {
+                return new Result(Outcome.NOT_FOUND, null);
+            }
+            String oldName = existing.getName();
+            if (!claimName(name, id)) {
+                return new Result(Outcome.CONFLICT, null);
+            }
+            existing.setName(name);
+            if (!Objects.equals(oldName, name)) {
+                releaseName(oldName, id);
+            }
+            existing.setDescription(description);
+            existing.setCompleted(completed);
+            return new Result(Outcome.OK, existing);
+        }
+    }
+
+    /** Remove the habit with {@code id} and free its name. */
+    Outcome delete(long id) {
+        lifecycle.readLock().lock();
+        try {
+            if (closed) {
+                return Outcome.CLOSED;
+            }
+            synchronized (stripeFor(id)) {
+                Habit removed = byId.remove(id);
+                if (removed == null) {
+                    return Outcome.NOT_FOUND;
+                }
+                releaseName(removed.getName(), id);
+                return Outcome.OK;
+            }
+        } finally {
+            lifecycle.readLock().unlock();
+        }
+    }
+
+    /** Reject all further writes; waits for writes already in progress to finish. */
+    void close() {
+        lifecycle.writeLock().lock();
+        try {
+            closed = true;
+        } finally {
+            lifecycle.writeLock().unlock();
+        }
+    }
+
+    private Object stripeFor(long id) {
+        return stripes[Long.hashCode(id) & (STRIPES - 1)];
+    }
+
+    /** Reserve {@code name} for {@code id}; true if it was free or already belongs to that id. */
+    private boolean claimName(String name, long id) {
+        Long owner = idByName.putIfAbsent(name, id);
+        return owner == null || owner == id;
+    }
+
+    /** Release {@code name} if it is still held by {@code id}. */
+    private void releaseName(String name, long id) {
+        if (name != null) {
+            idByName.remove(name, id);
+        }
+    }
+}
@@ -0,0 +1,131 @@
+package edu.trincoll.tracker;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Concurrency of a single tenant partition: name uniqueness must survive racing
+ * inserts, renames and deletes over a small, clashing set of names.
+ */
+@DisplayName("Habit Store Tests")
+class HabitStoreTest {
+
+    private static final int THREADS = 8;
+    private static final int OPS_PER_THREAD = 5_000;
+    private static final List<String> NAMES = List.of("a", "b", "c", "d", "e", "f", "g", "h");
+
+    private static Habit named(String name) {
+        Habit habit = new Habit();
+        habit.setName(name);
+        return habit;
+    }
+
+    @Test
+    @DisplayName("racing insert/update/delete keep every name on exactly one live habit")
+    void namesStayUniqueUnderContention() throws Exception {
+        HabitStore store = new HabitStore();
+        AtomicLong maxId = new AtomicLong(1);
+        CountDownLatch start = new CountDownLatch(1);
+
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        List<Future<?>> workers = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            workers.add(pool.submit(() -> {
+                start.await();
+                ThreadLocalRandom rnd = ThreadLocalRandom.current();
+                for (int i = 0; i < OPS_PER_THREAD; i++) {
+                    String name = NAMES.get(rnd.nextInt(NAMES.size()));
+                    long id = 1 + rnd.nextLong(maxId.get());
+                    switch (rnd.nextInt(3)) {
+                        case 0 -> {
+                            Habit habit = named(name);
+                            if (store.insert(habit) == HabitStore.Outcome.OK) {
+                                maxId.accumulateAndGet(habit.getId(), Math::max);
+                            }
+                        }
+                        case 1 -> store.update(id, name, "renamed", false);
+                        default -> store.delete(id);
+                    }
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> worker : workers) {
+            worker.get(60, TimeUnit.SECONDS);
+        }
+        pool.shutdown();
+
+        List<Habit> live = store.all();
+        Map<String, List<Long>> idsByName = live.stream()
+                .collect(Collectors.groupingBy(Habit::getName,
+                        Collectors.mapping(Habit::getId, Collectors.toList())));
+        assertThat(idsByName.values()).allSatisfy(ids -> assertThat(ids).hasSize(1));
+
+        for (String name : NAMES) {
+            List<Long> owner = idsByName.get(name);
+            if (owner == null) {
+                // no live habit holds the name, so it must not be left reserved
+                assertThat(store.insert(named(name))).isEqualTo(HabitStore.Outcome.OK);
+            } else {
+                assertThat(store.insert(named(name))).isEqualTo(HabitStore.Outcome.CONFLICT);
+                // the owning habit can keep its own name
+                assertThat(store.update(owner.get(0), name, "same", false).outcome())
+                        .isEqualTo(HabitStore.Outcome.OK);
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("names of deleted habits can be reused")
+    void deletedNamesAreReusable() throws Exception {
+        HabitStore store = new HabitStore();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        List<Future<?>> workers = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            workers.add(pool.submit(() -> {
+                start.await();
+                for (int i = 0; i < OPS_PER_THREAD; i++) {
+                    String name = NAMES.get(ThreadLocalRandom.current().nextInt(NAMES.size()));
+                    Habit habit = named(name);
+                    if (store.insert(habit) == HabitStore.Outcome.OK) {
+                        assertThat(store.delete(habit.getId())).isEqualTo(HabitStore.Outcome.OK);
+                    }
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> worker : workers) {
+            worker.get(60, TimeUnit.SECONDS);
+        }
+        pool.shutdown();
+
+        assertThat(store.all()).isEmpty();
+        for (String name : NAMES) {
+            assertThat(store.insert(named(name))).isEqualTo(HabitStore.Outcome.OK);
+        }
+    }
+
+    @Test
+    @DisplayName("writes to a closed store are rejected")
+    void closedStoreRejectsWrites() {
+        HabitStore store = new HabitStore();
+        Habit habit = named("a");
+        assertThat(store.insert(habit)).isEqualTo(HabitStore.Outcome.OK);
+
+        store.close();
+
+        assertThat(store.insert(named("b"))).isEqualTo(HabitStore.Outcome.CLOSED);
+        assertThat(store.update(habit.getId(), "c", null, false).outcome()).isEqualTo(HabitStore.Outcome.CLOSED);
+        assertThat(store.delete(habit.getId())).isEqualTo(HabitStore.Outcome.CLOSED);
+    }
+}
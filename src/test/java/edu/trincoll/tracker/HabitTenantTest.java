@@ -0,0 +1,137 @@
+package edu.trincoll.tracker;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Tenant partitioning of the Habit API: ids, name uniqueness and deletion are per tenant.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@DisplayName("Habit Tenant Tests")
+class HabitTenantTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @BeforeEach
+    void setUp() {
+        HabitController.clearStore();
+    }
+
+    private String habitJson(String name) throws Exception {
+        Habit habit = new Habit();
+        habit.setName(name);
+        habit.setDescription("desc");
+        return objectMapper.writeValueAsString(habit);
+    }
+
+    private ResultActions create(String tenant, String name) throws Exception {
+        return mockMvc.perform(post("/api/tenants/{tenant}/Habits", tenant)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(habitJson(name)));
+    }
+
+    private ResultActions rename(String tenant, long id, String name) throws Exception {
+        return mockMvc.perform(put("/api/tenants/{tenant}/Habits/{id}", tenant, id)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(habitJson(name)));
+    }
+
+    @Test
+    @DisplayName("same name and ids are independent across tenants")
+    void tenantsHaveIndependentIdsAndNames() throws Exception {
+        create("alice", "Run")
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.id").value(1));
+
+        mockMvc.perform(post("/api/Habits")
+                .header(HabitController.TENANT_HEADER, "bob")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(habitJson("Run")))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.id").value(1));
+
+        create("alice", "Run")
+                .andExpect(status().isConflict());
+
+        mockMvc.perform(get("/api/Habits"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(0)));
+    }
+
+    @Test
+    @DisplayName("renaming frees the old name within the tenant")
+    void renameReleasesOldName() throws Exception {
+        create("alice", "Read")
+                .andExpect(status().isCreated());
+
+        rename("alice", 1, "Write")
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.name").value("Write"));
+
+        create("alice", "Read")
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.id").value(2));
+    }
+
+    @Test
+    @DisplayName("new habit keeps its own name on update and frees it on delete")
+    void newHabitNameIsOwnedByItsId() throws Exception {
+        create("alice", "Stretch")
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.id").value(1));
+
+        rename("alice", 1, "Stretch")
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.name").value("Stretch"));
+
+        mockMvc.perform(delete("/api/tenants/alice/Habits/{id}", 1))
+                .andExpect(status().isNoContent());
+
+        create("alice", "Stretch")
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.id").value(2));
+    }
+
+    @Test
+    @DisplayName("deleting one tenant leaves the others intact")
+    void deleteTenant() throws Exception {
+        create("alice", "Run")
+                .andExpect(status().isCreated());
+        create("bob", "Swim")
+                .andExpect(status().isCreated());
+
+        assertThat(HabitController.deleteTenant("alice")).isTrue();
+        assertThat(HabitController.deleteTenant("alice")).isFalse();
+
+        mockMvc.perform(get("/api/tenants/alice/Habits"))
+                .andExpect(jsonPath("$", hasSize(0)));
+        mockMvc.perform(get("/api/tenants/bob/Habits/search").param("name", "sw"))
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].name").value("Swim"));
+    }
+
+    @Test
+    @DisplayName("malformed tenant id is rejected")
+    void malformedTenantRejected() throws Exception {
+        mockMvc.perform(get("/api/Habits").header(HabitController.TENANT_HEADER, "bad tenant!"))
+                .andExpect(status().isBadRequest());
+    }
+}